@@ -0,0 +1,228 @@
+package com.kvstore.main;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a non-blocking facade over a {@link Database}. Every operation is queued on a dedicated
+ * I/O thread and returns a {@link CompletableFuture}, so callers running on an event loop never block
+ * on file access. The number of queued operations is bounded; once the limit is reached new requests
+ * fail fast with a {@link RejectedExecutionException} so the caller can apply backpressure.
+ * Concurrent gets for the same key are coalesced into a single disk read.
+ */
+public class AsyncDatabase {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Database database;
+    private final ExecutorService ioExecutor;
+    private final Semaphore inFlight;
+    private final Map<String, CompletableFuture<String>> pendingGets;
+
+    /**
+     * Wraps the given database with the default bound on in-flight requests.
+     *
+     * @param database The database to execute operations against.
+     */
+    public AsyncDatabase(Database database) {
+        this(database, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Wraps the given database.
+     *
+     * @param database The database to execute operations against.
+     * @param maxInFlight The maximum number of operations that may be queued or running at once.
+     */
+    public AsyncDatabase(Database database, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.database = database;
+        // The database shares one file pointer across all operations, so I/O is confined to one thread
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kvstore-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inFlight = new Semaphore(maxInFlight);
+        this.pendingGets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Retrieves the value associated with the specified key. If a get for the same key is already
+     * pending, this call waits on that request's read instead of issuing another one. Every caller
+     * receives its own future, so cancelling or completing it does not affect other callers.
+     *
+     * @param key The key whose associated value is to be returned.
+     * @return A future completed with the value, or with null if no value is found.
+     */
+    public CompletableFuture<String> get(String key) {
+        CompletableFuture<String> pending = pendingGets.get(key);
+        if (pending != null) return pending.copy();
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = pendingGets.putIfAbsent(key, future);
+        if (existing != null) return existing.copy();
+
+        submit(future, () -> database.get(key));
+        future.whenComplete((value, error) -> pendingGets.remove(key, future));
+        return future.copy();
+    }
+
+    /**
+     * Retrieves the values associated with the specified keys in a single queued operation.
+     *
+     * @param keys The keys whose associated values are to be returned.
+     * @return A future completed with a map from each key to its value, or to null if no value is found.
+     */
+    public CompletableFuture<Map<String, String>> multiGet(List<String> keys) {
+        CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        submit(future, () -> {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String key : keys) {
+                values.put(key, database.get(key));
+            }
+            return values;
+        });
+        return future;
+    }
+
+    /**
+     * Inserts a new key-value pair or updates an existing pair in the database.
+     *
+     * @param key The key of the element to save.
+     * @param value The value to be associated with the key.
+     * @return A future completed once the write has been applied.
+     */
+    public CompletableFuture<Void> put(String key, String value) {
+        // Gets issued after this put must not be coalesced onto an earlier read
+        pendingGets.remove(key);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(future, () -> {
+            database.put(key, value);
+            return null;
+        });
+        return future;
+    }
+
+    /**
+     * Deletes the entry associated with the specified key.
+     *
+     * @param key The key whose entry is to be deleted.
+     * @return A future completed once the entry has been deleted, or exceptionally with an
+     *         {@link IOException} if the key does not exist.
+     */
+    public CompletableFuture<Void> delete(String key) {
+        pendingGets.remove(key);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(future, () -> {
+            database.delete(key);
+            return null;
+        });
+        return future;
+    }
+
+    /**
+     * Returns the number of operations that may still be submitted before requests are rejected.
+     *
+     * @return The number of free in-flight slots.
+     */
+    public int availableSlots() {
+        return inFlight.availablePermits();
+    }
+
+    /**
+     * Queues the task on the I/O thread and completes the future with its result. If the in-flight
+     * limit has been reached or the facade is closed, the future is failed immediately.
+     *
+     * @param future The future to complete.
+     * @param task The operation to run against the database.
+     */
+    private <T> void submit(CompletableFuture<T> future, Callable<T> task) {
+        if (!inFlight.tryAcquire()) {
+            future.completeExceptionally(new RejectedExecutionException("Too many in-flight requests"));
+            return;
+        }
+        IoTask<T> ioTask = new IoTask<>(future, task);
+        try {
+            ioExecutor.execute(ioTask);
+        } catch (RejectedExecutionException e) {
+            ioTask.abort(e);
+        }
+    }
+
+    /**
+     * An operation queued on the I/O thread. Holds its in-flight slot until it completes or is aborted.
+     */
+    private class IoTask<T> implements Runnable {
+        private final CompletableFuture<T> future;
+        private final Callable<T> task;
+
+        IoTask(CompletableFuture<T> future, Callable<T> task) {
+            this.future = future;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            T result;
+            try {
+                result = task.call();
+            } catch (Throwable e) {
+                abort(e);
+                return;
+            }
+            // Free the slot before completing so dependent stages can submit straight away
+            inFlight.release();
+            future.complete(result);
+        }
+
+        /**
+         * Fails the operation without running it, or after it failed, and frees its slot.
+         */
+        void abort(Throwable error) {
+            inFlight.release();
+            future.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Stops accepting new operations, waits for queued operations to finish, and closes the database.
+     * Operations still queued when the wait times out or is interrupted are failed with a
+     * {@link RejectedExecutionException}.
+     *
+     * @throws IOException If an I/O error occurs while closing the database.
+     */
+    public void close() throws IOException {
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                abortQueued();
+            }
+        } catch (InterruptedException e) {
+            abortQueued();
+            Thread.currentThread().interrupt();
+        }
+        database.close();
+    }
+
+    /**
+     * Stops the I/O thread and fails every operation that never got to run.
+     */
+    private void abortQueued() {
+        for (Runnable queued : ioExecutor.shutdownNow()) {
+            ((IoTask<?>) queued).abort(new RejectedExecutionException("AsyncDatabase closed before the operation ran"));
+        }
+    }
+}
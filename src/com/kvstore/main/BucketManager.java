@@ -7,6 +7,7 @@ package com.kvstore.main;
  */
 public class BucketManager {
     public static final int INITIAL_BUCKETS = 16;
+    public static final int MAX_BUCKETS = 1 << 30;
     private int bucketCount;
 
     public BucketManager() {
@@ -25,6 +26,30 @@ public class BucketManager {
         return bucketCount;
     }
 
+    /**
+     * Returns the number of buckets the resize ladder reaches for the given number of records, so a table
+     * can be built at its final size up front.
+     *
+     * @param expectedCount The number of records the table will hold.
+     * @param loadFactor The load factor above which the table grows.
+     * @return The smallest doubling of {@link #INITIAL_BUCKETS} that holds the records without growing.
+     */
+    public static int bucketCountFor(long expectedCount, double loadFactor) {
+        int bucketCount = INITIAL_BUCKETS;
+        while (expectedCount > (long) (bucketCount * loadFactor) && bucketCount < MAX_BUCKETS) {
+            bucketCount *= 2;
+        }
+        return bucketCount;
+    }
+
+    /**
+     * Returns the size of the file header, the bucket count followed by one chain head pointer per bucket.
+     * Records start right after it.
+     */
+    public long getHeaderSize() {
+        return Integer.BYTES + (long) bucketCount * Long.BYTES;
+    }
+
     public long getBucketOffset(String key) {
         return Integer.BYTES + getBucketIndex(key) * Long.BYTES;
     }
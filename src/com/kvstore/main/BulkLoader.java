@@ -0,0 +1,526 @@
+package com.kvstore.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static com.kvstore.main.Database.DEFAULT_DATA_FILE_NAME;
+import static com.kvstore.main.Database.HIGHER_LOAD_FACTOR;
+import static com.kvstore.main.Database.KEY_SIZE;
+import static com.kvstore.main.Database.RECORD_SIZE;
+import static com.kvstore.main.Database.VALUE_SIZE;
+import static com.kvstore.main.Database.checkKeyLength;
+import static com.kvstore.main.Database.toFixedBytes;
+
+/**
+ * Builds a data file offline from a stream of key-value pairs, and dumps an existing data file back out.
+ * Instead of inserting one record at a time through {@link Database#put}, which rewrites the whole file
+ * on every resize, the loader sizes the bucket table for the expected record count up front, sorts the
+ * records by bucket (spilling sorted runs to temporary files when the input does not fit in memory),
+ * and writes the final file in one sequential pass with each bucket's chain stored contiguously.
+ * The data file must not be open in a {@link Database} while loading or dumping.
+ */
+public class BulkLoader {
+    public static final int DEFAULT_RUN_SIZE = 1_000_000;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Orders records by bucket, then by key, with the most recently added duplicate first.
+     */
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.bucket)
+            .thenComparing(entry -> entry.key)
+            .thenComparing(Comparator.comparingLong((Entry entry) -> entry.sequence).reversed());
+
+    private final String dataFileName;
+    private final int runSize;
+
+    /**
+     * Creates a loader for the default data file.
+     */
+    public BulkLoader() {
+        this(DEFAULT_DATA_FILE_NAME, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * Creates a loader for the given data file.
+     *
+     * @param dataFileName The data file to build or dump.
+     * @param runSize The number of records sorted in memory before a run is spilled to disk.
+     */
+    public BulkLoader(String dataFileName, int runSize) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("runSize must be positive: " + runSize);
+        }
+        this.dataFileName = dataFileName;
+        this.runSize = runSize;
+    }
+
+    /**
+     * Replaces the data file with one containing the given records. If a key appears more than once,
+     * the last value wins, as it would with repeated puts.
+     *
+     * @param records The key-value pairs to load.
+     * @param expectedCount The expected number of distinct keys, used to size the bucket table. If more
+     *                      keys are loaded, the table simply starts above its load factor and grows on
+     *                      the next put.
+     * @return The number of records written.
+     * @throws IOException If a key is longer than {@link Database#KEY_SIZE} bytes, or an I/O error occurs
+     *                     while sorting or writing.
+     */
+    public long load(Iterator<Map.Entry<String, String>> records, long expectedCount) throws IOException {
+        try (Partitioner partitioner = new Partitioner(expectedCount)) {
+            while (records.hasNext()) {
+                Map.Entry<String, String> record = records.next();
+                partitioner.add(record.getKey(), record.getValue());
+            }
+            return writeDataFile(partitioner);
+        }
+    }
+
+    /**
+     * Replaces the data file with the records of a tab-separated file holding one key and value per line,
+     * in the format written by {@link #exportTsv}. The value is everything after the first tab, and
+     * escape sequences in both fields are decoded. Empty lines are skipped.
+     *
+     * @param input The TSV file to load.
+     * @param expectedCount The expected number of distinct keys, used to size the bucket table.
+     * @return The number of records written.
+     * @throws IOException If the input is malformed, a key is too long, or an I/O error occurs.
+     */
+    public long loadTsv(Path input, long expectedCount) throws IOException {
+        try (Partitioner partitioner = new Partitioner(expectedCount);
+             BufferedReader reader = Files.newBufferedReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Missing tab separator on line " + lineNumber + " of " + input);
+                }
+                partitioner.add(unescapeTsv(line.substring(0, tab)), unescapeTsv(line.substring(tab + 1)));
+            }
+            return writeDataFile(partitioner);
+        }
+    }
+
+    /**
+     * Streams every active record of the data file as a tab-separated line, in file order. Backslashes,
+     * tabs, carriage returns and newlines in keys and values are escaped, so the output loads back
+     * unchanged with {@link #loadTsv}.
+     *
+     * @param out The writer to receive the records.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    public long export(Writer out) throws IOException {
+        FileManager fileManager = new FileManager(dataFileName, "r");
+        try {
+            if (fileManager.getLength() == 0) return 0;
+            fileManager.seek(0);
+            BucketManager bucketManager = new BucketManager(fileManager.readInt());
+            return new RecordScanner(fileManager::read, bucketManager.getHeaderSize(), fileManager.getLength())
+                    .exportTsv(out);
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    /**
+     * Dumps every active record of the data file to a TSV file that {@link #loadTsv} can read back.
+     *
+     * @param output The file to write.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    public long exportTsv(Path output) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            return export(writer);
+        }
+    }
+
+    /**
+     * Writes the sorted records to a temporary file and moves it over the data file. Records of one bucket
+     * are adjacent, so each record's next pointer is either the following record or the end of the chain,
+     * and the bucket table is filled in order alongside.
+     *
+     * @param partitioner The partitioner holding every record to write.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs.
+     */
+    private long writeDataFile(Partitioner partitioner) throws IOException {
+        BucketManager bucketManager = partitioner.bucketManager;
+        long headerSize = bucketManager.getHeaderSize();
+        String tempFileName = dataFileName + ".load.tmp";
+        FileManager fileManager = new FileManager(tempFileName, "rw");
+        long count = 0;
+        try (EntrySource source = partitioner.sorted()) {
+            fileManager.setLength(0);
+            SequentialWriter header = new SequentialWriter(fileManager, 0);
+            SequentialWriter records = new SequentialWriter(fileManager, headerSize);
+            header.putInt(bucketManager.getBucketCount());
+            long nextBucket = 0;
+            Entry pending = null;
+
+            for (Entry entry = source.next(); entry != null; entry = source.next()) {
+                boolean sameBucket = pending != null && pending.bucket == entry.bucket;
+                if (sameBucket && pending.key.equals(entry.key)) continue; // Older value of the same key
+
+                long entryPos = headerSize + count * RECORD_SIZE;
+                if (!sameBucket) {
+                    // First record of a new chain, fill the table up to its bucket
+                    for (; nextBucket < entry.bucket; nextBucket++) {
+                        header.putLong(0);
+                    }
+                    header.putLong(entryPos);
+                    nextBucket++;
+                }
+                if (pending != null) {
+                    records.putRecord(pending, sameBucket ? entryPos : 0);
+                }
+                pending = entry;
+                count++;
+            }
+            if (pending != null) {
+                records.putRecord(pending, 0);
+            }
+            for (; nextBucket < bucketManager.getBucketCount(); nextBucket++) {
+                header.putLong(0);
+            }
+            header.flush();
+            records.flush();
+        } finally {
+            fileManager.close();
+        }
+        fileManager.moveFile(Paths.get(tempFileName), Paths.get(dataFileName), StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    /**
+     * Escapes the characters that would break the one-record-per-line TSV format.
+     */
+    static String escapeTsv(String string) {
+        StringBuilder escaped = new StringBuilder(string.length());
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reverses {@link #escapeTsv}. A backslash before any other character is kept as is, so hand-written
+     * files containing plain backslashes still load.
+     */
+    static String unescapeTsv(String string) {
+        if (string.indexOf('\\') < 0) return string;
+        StringBuilder unescaped = new StringBuilder(string.length());
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c != '\\' || i + 1 == string.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char next = string.charAt(i + 1);
+            switch (next) {
+                case '\\':
+                    unescaped.append('\\');
+                    break;
+                case 't':
+                    unescaped.append('\t');
+                    break;
+                case 'n':
+                    unescaped.append('\n');
+                    break;
+                case 'r':
+                    unescaped.append('\r');
+                    break;
+                default:
+                    unescaped.append(c).append(next);
+            }
+            i++;
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * A record waiting to be written, tagged with its bucket in the new table and its input position.
+     */
+    private static class Entry {
+        final long bucket;
+        final long sequence;
+        final String key;
+        final String value;
+
+        Entry(long bucket, long sequence, String key, String value) {
+            this.bucket = bucket;
+            this.sequence = sequence;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Produces entries in {@link #ENTRY_ORDER}, returning null once exhausted.
+     */
+    private interface EntrySource extends Closeable {
+        Entry next() throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * Assigns records to buckets and sorts them, keeping at most one run in memory. Full runs are
+     * sorted and spilled to temporary files, which are merged when the sorted output is read.
+     */
+    private class Partitioner implements Closeable {
+        final BucketManager bucketManager;
+        private final List<Entry> buffer;
+        private final List<Path> runs;
+        private long sequence;
+
+        Partitioner(long expectedCount) {
+            this.bucketManager = new BucketManager(BucketManager.bucketCountFor(expectedCount, HIGHER_LOAD_FACTOR));
+            this.buffer = new ArrayList<>();
+            this.runs = new ArrayList<>();
+        }
+
+        void add(String key, String value) throws IOException {
+            checkKeyLength(key);
+            long bucket = bucketManager.getBucketIndex(key);
+            buffer.add(new Entry(bucket, sequence++, key, truncate(value, VALUE_SIZE)));
+            if (buffer.size() >= runSize) {
+                spill();
+            }
+        }
+
+        private String truncate(String string, int length) {
+            return string.length() > length ? string.substring(0, length) : string;
+        }
+
+        private void spill() throws IOException {
+            buffer.sort(ENTRY_ORDER);
+            Path run = Files.createTempFile("kvstore-run-", ".tmp");
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (Entry entry : buffer) {
+                    out.writeLong(entry.bucket);
+                    out.writeLong(entry.sequence);
+                    out.writeUTF(entry.key);
+                    out.writeUTF(entry.value);
+                }
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Returns every added record in sorted order, straight from memory if nothing was spilled.
+         */
+        EntrySource sorted() throws IOException {
+            if (runs.isEmpty()) {
+                buffer.sort(ENTRY_ORDER);
+                Iterator<Entry> iterator = buffer.iterator();
+                return () -> iterator.hasNext() ? iterator.next() : null;
+            }
+            if (!buffer.isEmpty()) {
+                spill();
+            }
+            List<EntrySource> sources = new ArrayList<>();
+            for (Path run : runs) {
+                sources.add(new RunReader(run));
+            }
+            return new MergedSource(sources);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Reads back a run spilled by {@link Partitioner#spill()}.
+     */
+    private static class RunReader implements EntrySource {
+        private final DataInputStream in;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        @Override
+        public Entry next() throws IOException {
+            long bucket;
+            try {
+                bucket = in.readLong();
+            } catch (EOFException e) {
+                return null;
+            }
+            return new Entry(bucket, in.readLong(), in.readUTF(), in.readUTF());
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Merges sorted sources into one sorted stream.
+     */
+    private static class MergedSource implements EntrySource {
+        private final List<EntrySource> sources;
+        private final PriorityQueue<Cursor> heads;
+
+        MergedSource(List<EntrySource> sources) throws IOException {
+            this.sources = sources;
+            this.heads = new PriorityQueue<>((a, b) -> ENTRY_ORDER.compare(a.current, b.current));
+            for (EntrySource source : sources) {
+                Entry first = source.next();
+                if (first != null) {
+                    heads.add(new Cursor(source, first));
+                }
+            }
+        }
+
+        @Override
+        public Entry next() throws IOException {
+            Cursor cursor = heads.poll();
+            if (cursor == null) return null;
+            Entry entry = cursor.current;
+            cursor.current = cursor.source.next();
+            if (cursor.current != null) {
+                heads.add(cursor);
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (EntrySource source : sources) {
+                source.close();
+            }
+        }
+
+        private static class Cursor {
+            final EntrySource source;
+            Entry current;
+
+            Cursor(EntrySource source, Entry current) {
+                this.source = source;
+                this.current = current;
+            }
+        }
+    }
+
+    /**
+     * Buffers writes to one region of a file and flushes them with positional writes, so the bucket table
+     * and the record area can each be written sequentially through the same file.
+     */
+    private static class SequentialWriter {
+        private final FileManager fileManager;
+        private final ByteBuffer buffer;
+        private long position;
+
+        SequentialWriter(FileManager fileManager, long position) {
+            this.fileManager = fileManager;
+            this.buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            this.position = position;
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putRecord(Entry entry, long nextPos) throws IOException {
+            ensureRemaining(RECORD_SIZE);
+            buffer.put((byte) 1); // Active record
+            buffer.putLong(nextPos);
+            buffer.put(toFixedBytes(entry.key, KEY_SIZE));
+            buffer.put(toFixedBytes(entry.value, VALUE_SIZE));
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            fileManager.write(buffer, position);
+            position += buffer.limit();
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length == 3 && args[0].equalsIgnoreCase("load")) {
+                long count = new BulkLoader().loadTsv(Paths.get(args[1]), Long.parseLong(args[2]));
+                System.out.println("Loaded " + count + " entries.");
+            } else if (args.length == 2 && args[0].equalsIgnoreCase("dump")) {
+                long count = new BulkLoader().exportTsv(Paths.get(args[1]));
+                System.out.println("Dumped " + count + " entries.");
+            } else {
+                showUsage();
+            }
+        } catch (NumberFormatException e) {
+            showUsage();
+        } catch (IOException e) {
+            System.out.println("Bulk load error: " + e.getMessage());
+        }
+    }
+
+    private static void showUsage() {
+        System.out.println("Usage: java BulkLoader <command> <file> [expectedCount]");
+        System.out.println("Commands:");
+        System.out.println("  load <input.tsv> <expectedCount> - Replaces data.data with the entries of a TSV file");
+        System.out.println("  dump <output.tsv>                - Writes every entry of data.data to a TSV file");
+    }
+}
@@ -1,8 +1,28 @@
 package com.kvstore.main;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static com.kvstore.main.BucketManager.INITIAL_BUCKETS;
 
@@ -12,36 +32,73 @@ import static com.kvstore.main.BucketManager.INITIAL_BUCKETS;
  * load factors for efficient data handling.
  */
 public class Database {
-    private static final int KEY_SIZE = 100;
-    private static final int VALUE_SIZE = 100;
-    private static final double HIGHER_LOAD_FACTOR = 0.75;
+    static final int KEY_SIZE = 100;
+    static final int VALUE_SIZE = 100;
+    // Status byte, next pointer, key and value
+    static final int RECORD_SIZE = 1 + Long.BYTES + KEY_SIZE + VALUE_SIZE;
+    // Keys and values are stored as UTF-8 regardless of the platform default
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+    static final double HIGHER_LOAD_FACTOR = 0.75;
     private static final double LOWER_LOAD_FACTOR = 0.125;
     private static final int SHRINK = 0;
     private static final int GROW = 1;
-    private static final String DEFAULT_DATA_FILE_NAME = "data.data";
+    static final String DEFAULT_DATA_FILE_NAME = "data.data";
+    static final String DEFAULT_HOT_KEYS_FILE_NAME = "data.hot";
+    // Prefix of the IOException message delete throws for a missing key
+    static final String KEY_NOT_FOUND = "Key not found: ";
+    private static final int WARM_UP_BATCH_SIZE = 64;
 
     private FileManager fileManager;
     private final BucketManager bucketManager;
     private final LRUCache cache;
+    private final WarmUpStats warmUpStats;
+    private Thread warmUpThread;
+    private final List<Snapshot> snapshots;
+    private long snapshotPagesCopied;
+    private long snapshotCopyNanos;
+    private long cacheHits;
+    private long cacheMisses;
+    private int resizeCount;
 
     private int size;  // Number of active records
 
     /**
-     * Initializes a new Database instance. If the data file is empty, it initializes a new hash table.
-     * Otherwise, it reads the existing bucket count from the file.
+     * Initializes a new Database instance without preloading the cache.
      *
      * @throws IOException If there is an error opening the file or reading from it.
      */
     public Database() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Initializes a new Database instance. If the data file is empty, it initializes a new hash table.
+     * Otherwise, it reads the existing bucket count from the file, counts the active records and, if
+     * requested, starts preloading the cache in the background from the hot keys persisted by the last
+     * {@link #close()}.
+     *
+     * @param warmUpTimeoutMillis The maximum time to spend preloading the cache, or 0 to skip warm-up.
+     * @throws IOException If there is an error opening the file or reading from it.
+     */
+    public Database(long warmUpTimeoutMillis) throws IOException {
         this.fileManager = new FileManager(DEFAULT_DATA_FILE_NAME, "rw");
         this.bucketManager = new BucketManager();
         this.cache = new LRUCache();
+        this.warmUpStats = new WarmUpStats(cache.getCapacity());
+        this.snapshots = new CopyOnWriteArrayList<>();
         this.size = 0;
         if (fileManager.getLength() == 0) {
             initializeHashTable();
+            warmUpStats.setFinished(true);
         } else {
             // Assuming the first int in the file is the number of buckets
             bucketManager.setBucketCount(fileManager.readInt());
+            this.size = countActiveRecords();
+            if (warmUpTimeoutMillis > 0) {
+                startWarmUp(warmUpTimeoutMillis);
+            } else {
+                warmUpStats.setFinished(true);
+            }
         }
     }
 
@@ -61,6 +118,22 @@ public class Database {
         }
     }
 
+    /**
+     * Counts the active records with one sequential scan of the record area, so load factors stay correct
+     * for files written by a previous instance or by {@link BulkLoader}.
+     *
+     * @return The number of active records in the file.
+     * @throws IOException If there is an error reading the file.
+     */
+    private int countActiveRecords() throws IOException {
+        RecordScanner scanner = new RecordScanner(fileManager::read, bucketManager.getHeaderSize(), fileManager.getLength());
+        int count = 0;
+        while (scanner.next()) {
+            if (scanner.isActive()) count++;
+        }
+        return count;
+    }
+
     /**
      * Retrieves the value associated with the specified key.
      *
@@ -68,9 +141,28 @@ public class Database {
      * @return The value associated with the specified key, or null if no value is found.
      * @throws IOException If an I/O error occurs during file access.
      */
-    public String get(String key) throws IOException {
+    public synchronized String get(String key) throws IOException {
         String value;
-        if ((value = cache.get(key)) != null) return value;
+        if ((value = cache.get(key)) != null) {
+            cacheHits++;
+            return value;
+        }
+        cacheMisses++;
+        value = readFromDisk(key);
+        if (value != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Looks up the value for the specified key by walking its bucket chain, bypassing the cache.
+     *
+     * @param key The key whose associated value is to be returned.
+     * @return The value associated with the specified key, or null if no value is found.
+     * @throws IOException If an I/O error occurs during file access.
+     */
+    private String readFromDisk(String key) throws IOException {
         long bucketOffset = bucketManager.getBucketOffset(key);
         fileManager.seek(bucketOffset);
         long entryPos = fileManager.readLong(); // Read the head of the chain for this bucket
@@ -81,13 +173,12 @@ public class Database {
             long nextEntryPos = fileManager.readLong(); // Read the pointer to the next record
             byte[] keyBytes = new byte[KEY_SIZE];
             fileManager.readKey(keyBytes); // Read the key
-            String currentKey = new String(keyBytes).trim();
+            String currentKey = new String(keyBytes, CHARSET).trim();
 
             if (status == 1 && currentKey.equals(key)) {
                 byte[] valueBytes = new byte[VALUE_SIZE];
                 fileManager.readValue(valueBytes); // Read the value
-                cache.put(key, new String(valueBytes).trim());
-                return new String(valueBytes).trim(); // Return the found value
+                return new String(valueBytes, CHARSET).trim(); // Return the found value
             }
 
             entryPos = nextEntryPos; // Move to the next entry in the chain
@@ -101,15 +192,18 @@ public class Database {
      *
      * @param key The key of the element to save.
      * @param value The value to be associated with the key.
-     * @throws IOException If an I/O error occurs during file access.
+     * @throws IOException If the key is longer than {@link #KEY_SIZE} bytes or an I/O error occurs during
+     *                     file access.
      */
-    public void put(String key, String value) throws IOException {
-        cache.put(key, value);
+    public synchronized void put(String key, String value) throws IOException {
+        checkKeyLength(key);
         if ((size + 1) > (int) (bucketManager.getBucketCount() * HIGHER_LOAD_FACTOR)) {
             resize(GROW);
             fileManager = new FileManager(DEFAULT_DATA_FILE_NAME, "rw");
             fileManager.seek(0);
         }
+        // Cache only once a failed resize can no longer leave a value that was never written
+        cache.put(key, value);
 
         long bucketOffset = bucketManager.getBucketOffset(key);
         fileManager.seek(bucketOffset);
@@ -123,30 +217,33 @@ public class Database {
             long nextPos = fileManager.readLong();
             byte[] keyBytes = new byte[KEY_SIZE];
             fileManager.readKey(keyBytes);
-            if (status == 1 && new String(keyBytes).trim().equals(key)) {
+            if (status == 1 && new String(keyBytes, CHARSET).trim().equals(key)) {
                 // Key found, update value
-                fileManager.write(fixLength(value, VALUE_SIZE).getBytes());
+                preserveForSnapshots(VALUE_SIZE);
+                fileManager.write(toFixedBytes(value, VALUE_SIZE));
                 return;
             }
             prevPos = currentPos;
             currentPos = nextPos;
         }
 
-        // No entry found, add new entry
+        // No entry found, add new entry past the end of every open snapshot
         long newEntryPos = fileManager.getLength();
         fileManager.seek(newEntryPos);
         fileManager.writeByte(1); // Active record
         fileManager.writeLong(0); // Next pointer
-        fileManager.write(fixLength(key, KEY_SIZE).getBytes());
-        fileManager.write(fixLength(value, VALUE_SIZE).getBytes());
+        fileManager.write(toFixedBytes(key, KEY_SIZE));
+        fileManager.write(toFixedBytes(value, VALUE_SIZE));
 
         if (prevPos == -1) {
             // Updating head of the bucket
             fileManager.seek(bucketOffset);
+            preserveForSnapshots(Long.BYTES);
             fileManager.writeLong(newEntryPos);
         } else {
             // Updating the previous record's next pointer
             fileManager.seek(prevPos + 1); // +1 to skip the status byte
+            preserveForSnapshots(Long.BYTES);
             fileManager.writeLong(newEntryPos);
         }
 
@@ -160,7 +257,7 @@ public class Database {
      * @param key The key whose entry is to be deleted.
      * @throws IOException If an I/O error occurs during file access or the key does not exist.
      */
-    public void delete(String key) throws IOException {
+    public synchronized void delete(String key) throws IOException {
         cache.delete(key);
         if ((size - 1) < (int) (bucketManager.getBucketCount() * LOWER_LOAD_FACTOR)) {
             resize(SHRINK);
@@ -180,21 +277,24 @@ public class Database {
             long nextPos = fileManager.readLong();
             byte[] keyBytes = new byte[KEY_SIZE];
             fileManager.readKey(keyBytes);
-            String currentKey = new String(keyBytes).trim();
+            String currentKey = new String(keyBytes, CHARSET).trim();
 
             if (status == 1 && currentKey.equals(key)) {
                 // Mark the record as deleted by setting its status byte to 0
                 fileManager.seek(currentPos);  // Go back to the start of the record
+                preserveForSnapshots(1);
                 fileManager.writeByte(0);  // Status byte to 0 to mark as deleted
 
                 // If you need to remove the record from the chain
                 if (prevPos != 0) {
                     // Update the previous record's next pointer
                     fileManager.seek(prevPos + 1);  // Move to the position of the next pointer in the previous record
+                    preserveForSnapshots(Long.BYTES);
                     fileManager.writeLong(nextPos);  // Set the previous record's next pointer to skip the deleted record
                 } else {
                     // Update the head pointer in the bucket if the head record is deleted
                     fileManager.seek(bucketOffset);
+                    preserveForSnapshots(Long.BYTES);
                     fileManager.writeLong(nextPos);
                 }
                 size--;
@@ -207,7 +307,7 @@ public class Database {
         }
 
         // If the key was not found, you might want to throw an exception or return a status
-         throw new IOException("Key not found: " + key);
+         throw new IOException(KEY_NOT_FOUND + key);
     }
 
 
@@ -216,7 +316,8 @@ public class Database {
      *
      * @param mode The operation mode, either SHRINK (0) or GROW (1), where SHRINK halves the bucket count,
      *             and GROW doubles it.
-     * @throws IOException If an I/O error occurs during resizing operations.
+     * @throws IOException If an I/O error occurs during resizing operations. If the resized file cannot
+     *                     replace the data file, the data file is reopened unchanged.
      */
     private void resize(int mode) throws IOException {
         String tempFileName = "tempStore_" + System.currentTimeMillis() + ".tmp";
@@ -255,8 +356,8 @@ public class Database {
                 fileManager.readValue(valueBytes);
                 if (status == 1) {
                     // rehash this value into the new file
-                    long newBucketIndex = tempBucketManager.getBucketIndex(new String(keyBytes).trim());
-                    long newBucketOffset = tempBucketManager.getBucketOffset(new String(keyBytes).trim());
+                    long newBucketIndex = tempBucketManager.getBucketIndex(new String(keyBytes, CHARSET).trim());
+                    long newBucketOffset = tempBucketManager.getBucketOffset(new String(keyBytes, CHARSET).trim());
                     tempFileManager.seek(newBucketOffset);
                     long newEntryPos = tempFileManager.readLong();
 
@@ -274,32 +375,311 @@ public class Database {
                 entryPos = nextPos;
             }
         }
+        tempFileManager.close();
         fileManager.close();
-        fileManager.moveFile(Paths.get(tempFileName), Paths.get("data.data"), StandardCopyOption.REPLACE_EXISTING);
+        try {
+            fileManager.moveFile(Paths.get(tempFileName), Paths.get("data.data"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Replacing a file that a snapshot holds open fails where rename needs delete sharing (e.g. Windows),
+            // so keep working on the old file and leave the resize for a later write
+            fileManager = new FileManager(DEFAULT_DATA_FILE_NAME, "rw");
+            Files.deleteIfExists(Paths.get(tempFileName));
+            throw e;
+        }
+        // Open snapshots keep reading the old file through their own handles, which is never written again
+        for (Snapshot snapshot : snapshots) {
+            snapshot.detach();
+        }
+        snapshots.clear();
         bucketManager.setBucketCount(newBucketCount);
+        resizeCount++;
+    }
+
+    /**
+     * Opens a consistent, read-only view of the data as it is now. Later puts and deletes are not visible
+     * through the snapshot and are not blocked by its readers; they only pay for copying each page the first
+     * time they overwrite it while the snapshot is open. Close the snapshot to stop that overhead.
+     * Resizing replaces the data file while snapshots still hold it open, which needs POSIX rename semantics;
+     * on platforms such as Windows, puts and deletes that need a resize fail with an {@link IOException}
+     * until the snapshots are closed. Closing the database closes its open snapshots.
+     *
+     * @return The snapshot.
+     * @throws IOException If the data file cannot be opened for reading.
+     */
+    public synchronized Snapshot snapshot() throws IOException {
+        Snapshot snapshot = new Snapshot(this, bucketManager.getBucketCount(), fileManager.getLength());
+        snapshots.add(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Stops copy-on-write tracking for a snapshot that is being closed.
+     *
+     * @param snapshot The snapshot being closed.
+     */
+    void release(Snapshot snapshot) {
+        snapshots.remove(snapshot);
     }
 
     /**
-     * Adjusts the length of the given string to a specified length by padding it with spaces
-     * on the right if it is shorter than the desired length. If the string is longer than the
-     * specified length, it will be truncated to fit.
+     * Hands every open snapshot a copy of the pages about to be overwritten in place, starting at the
+     * current file position.
      *
-     * @param string The string to be adjusted.
-     * @param length The desired length of the string. Must be non-negative.
-     * @return A string adjusted to the specified length.
+     * @param length The number of bytes about to be written.
+     * @throws IOException If the original bytes cannot be read.
+     */
+    private void preserveForSnapshots(int length) throws IOException {
+        if (snapshots.isEmpty()) return;
+        long start = System.nanoTime();
+        long position = fileManager.getPosition();
+        for (Snapshot snapshot : snapshots) {
+            snapshotPagesCopied += snapshot.preserve(position, length);
+        }
+        snapshotCopyNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the number of gets answered from the cache.
+     */
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Returns the number of gets that had to read the data file.
+     */
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns the number of times the hash table has been grown or shrunk since this instance was opened.
+     */
+    public synchronized int getResizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * Returns the number of pages copied on behalf of snapshots by puts and deletes.
+     */
+    public synchronized long getSnapshotPagesCopied() {
+        return snapshotPagesCopied;
+    }
+
+    /**
+     * Returns the total time puts and deletes have spent preserving pages for snapshots, in nanoseconds.
      */
-    private String fixLength(String string, int length) {
-        return String.format("%-" + length + "s", string);
+    public synchronized long getSnapshotOverheadNanos() {
+        return snapshotCopyNanos;
     }
 
     /**
-     * Closes the file manager and releases any system resources associated with the file.
+     * Rejects keys that do not fit in a record. A truncated key would be hashed from the full key but
+     * stored cut short, so no get could find it.
      *
-     * @throws IOException If an I/O error occurs.
+     * @param key The key to check.
+     * @throws IOException If the key is longer than {@link #KEY_SIZE} bytes.
+     */
+    static void checkKeyLength(String key) throws IOException {
+        if (key.getBytes(CHARSET).length > KEY_SIZE) {
+            throw new IOException("Key longer than " + KEY_SIZE + " bytes: " + key);
+        }
+    }
+
+    /**
+     * Encodes the string padded with spaces and cut to exactly the given number of bytes, so every record
+     * keeps its fixed size even when characters take more than one byte. A string that does not fit is cut
+     * after its last whole character, never inside a multi-byte one.
+     *
+     * @param string The string to encode.
+     * @param length The number of bytes to produce.
+     * @return The encoded string, exactly {@code length} bytes long.
+     */
+    static byte[] toFixedBytes(String string, int length) {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        // The encoder stops at the first character that does not fit whole
+        CHARSET.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .encode(CharBuffer.wrap(string), bytes, true);
+        while (bytes.hasRemaining()) {
+            bytes.put((byte) ' ');
+        }
+        return bytes.array();
+    }
+
+    /**
+     * Returns the progress of the background cache warm-up started by the constructor.
+     *
+     * @return The warm-up statistics.
+     */
+    public WarmUpStats getWarmUpStats() {
+        return warmUpStats;
+    }
+
+    /**
+     * Reads the hot keys persisted by the last {@link #close()}, ordered from most to least recently used.
+     * A truncated or corrupt snapshot is treated as empty and flagged in the warm-up statistics, since
+     * warm-up is only an optimization.
+     *
+     * @return The persisted keys, or an empty list if there is no readable snapshot.
+     */
+    private List<String> readHotKeys() {
+        List<String> keys = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(DEFAULT_HOT_KEYS_FILE_NAME)))) {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Negative hot key count: " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                keys.add(in.readUTF());
+            }
+        } catch (FileNotFoundException e) {
+            // No snapshot yet, nothing to warm up
+        } catch (IOException e) {
+            warmUpStats.setSnapshotUnreadable(true);
+            keys.clear();
+        }
+        return keys;
+    }
+
+    /**
+     * Persists the cached keys in recency order so the next instance can warm up its cache.
+     *
+     * @throws IOException If an I/O error occurs while writing the snapshot.
+     */
+    private void writeHotKeys() throws IOException {
+        List<String> keys = cache.keys();
+        String tempFileName = DEFAULT_HOT_KEYS_FILE_NAME + ".tmp";
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFileName)))) {
+            out.writeInt(keys.size());
+            for (String key : keys) {
+                out.writeUTF(key);
+            }
+        }
+        fileManager.moveFile(Paths.get(tempFileName), Paths.get(DEFAULT_HOT_KEYS_FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Starts a background thread that reads the hot-key snapshot and loads its keys into the cache until
+     * done or until the timeout elapses.
+     *
+     * @param timeoutMillis The maximum time to spend loading.
+     */
+    private void startWarmUp(long timeoutMillis) {
+        warmUpThread = new Thread(() -> warmUp(timeoutMillis), "kvstore-warm-up");
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    /**
+     * Reads the hot keys and loads them in batches. Each batch holds the database lock, so foreground
+     * operations interleave between batches and always win: keys they touch are already cached and are
+     * skipped here.
+     *
+     * @param timeoutMillis The maximum time to spend loading.
+     */
+    private void warmUp(long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int restored = 0;
+        try {
+            List<String> hotKeys = readHotKeys();
+            warmUpStats.setKeysInSnapshot(hotKeys.size());
+            for (int from = 0; from < hotKeys.size(); from += WARM_UP_BATCH_SIZE) {
+                if (Thread.currentThread().isInterrupted()) break;
+                if (System.nanoTime() >= deadline) {
+                    warmUpStats.setTimedOut(true);
+                    break;
+                }
+                List<String> batch = hotKeys.subList(from, Math.min(from + WARM_UP_BATCH_SIZE, hotKeys.size()));
+                synchronized (this) {
+                    restored += warmUpBatch(batch);
+                }
+                warmUpStats.setKeysRestored(restored);
+                warmUpStats.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (IOException e) {
+            // Warm-up is best effort; the cache fills on demand from here on
+        } finally {
+            warmUpStats.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            warmUpStats.setFinished(true);
+        }
+    }
+
+    /**
+     * Reads one batch of hot keys in bucket order, so the bucket table is scanned front to back, then appends
+     * them to the cache in their original recency order.
+     *
+     * @param batch The keys to load, ordered from most to least recently used.
+     * @return The number of keys added to the cache.
+     * @throws IOException If an I/O error occurs during file access.
+     */
+    private int warmUpBatch(List<String> batch) throws IOException {
+        List<String> byBucket = new ArrayList<>(batch);
+        byBucket.sort(Comparator.comparingLong(bucketManager::getBucketOffset));
+        Map<String, String> values = new HashMap<>();
+        for (String key : byBucket) {
+            if (cache.contains(key)) continue;
+            String value = readFromDisk(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+
+        int restored = 0;
+        for (String key : batch) {
+            String value = values.get(key);
+            if (value != null && cache.appendIfAbsent(key, value)) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Stops the background warm-up, if running, and waits for it to finish its current batch.
+     */
+    private void stopWarmUp() {
+        if (warmUpThread == null) return;
+        warmUpThread.interrupt();
+        try {
+            warmUpThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Persists the cached keys for the next warm-up, closes every open snapshot, since nothing preserves
+     * their pages once this instance stops writing, then closes the file manager and releases any system
+     * resources associated with the file. Failing to persist the hot keys does not fail the close; it is
+     * flagged in the warm-up statistics instead.
+     *
+     * @throws IOException If an I/O error occurs while closing the data file.
      */
     public void close() throws IOException {
-        if (fileManager != null) {
-            fileManager.close();
+        // Must not hold the lock here, the warm-up thread needs it to finish its batch
+        stopWarmUp();
+        synchronized (this) {
+            if (fileManager != null) {
+                try {
+                    writeHotKeys();
+                } catch (IOException e) {
+                    // Hot keys only speed up the next warm-up, like reading them this is best effort
+                    warmUpStats.setSnapshotUnwritable(true);
+                }
+                try {
+                    for (Snapshot snapshot : snapshots) {
+                        snapshot.close();
+                    }
+                } finally {
+                    fileManager.close();
+                }
+            }
         }
     }
 }
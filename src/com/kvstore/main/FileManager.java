@@ -3,6 +3,7 @@ package com.kvstore.main;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 
 /**
@@ -65,6 +66,32 @@ public class FileManager {
         file.writeByte(b);
     }
 
+    /**
+     * Reads bytes starting at the given position until the buffer is full or the end of the file is reached.
+     * Does not move the file pointer used by the other read and write methods.
+     */
+    public void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = file.getChannel().read(buffer, position);
+            if (read < 0) break;
+            position += read;
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer starting at the given position. Does not move the file
+     * pointer used by the other read and write methods.
+     */
+    public void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += file.getChannel().write(buffer, position);
+        }
+    }
+
+    public long getPosition() throws IOException {
+        return file.getFilePointer();
+    }
+
     public void seek(long pos) throws IOException {
         file.seek(pos);
     }
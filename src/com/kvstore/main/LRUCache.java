@@ -1,6 +1,8 @@
 package com.kvstore.main;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -129,6 +131,58 @@ class LRUCache {
         }
     }
 
+    /**
+     * Inserts the key as the least recently used entry if it is not already cached and the cache
+     * has spare capacity. Existing entries are never evicted or reordered.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return true if the entry was inserted
+     */
+    public boolean appendIfAbsent(String key, String value) {
+        if (cache.containsKey(key) || cache.size() >= capacity) return false;
+        Node newNode = new Node(key, value);
+        cache.put(key, newNode);
+        Node prev = tail.prev;
+        newNode.prev = prev;
+        newNode.next = tail;
+        prev.next = newNode;
+        tail.prev = newNode;
+        return true;
+    }
+
+    /**
+     * Returns whether the specified key is cached, without affecting its recency.
+     *
+     * @param key the key to look up
+     * @return true if the key is cached
+     */
+    public boolean contains(String key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Returns the cached keys ordered from most to least recently used.
+     *
+     * @return the cached keys in recency order
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(cache.size());
+        for (Node node = head.next; node != tail; node = node.next) {
+            keys.add(node.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the maximum number of entries the cache holds.
+     *
+     * @return the capacity of the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
     /**
      * Removes the entry for the specified key only if it is currently mapped.
      *
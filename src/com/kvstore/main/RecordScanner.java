@@ -0,0 +1,114 @@
+package com.kvstore.main;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+import static com.kvstore.main.Database.CHARSET;
+import static com.kvstore.main.Database.KEY_SIZE;
+import static com.kvstore.main.Database.RECORD_SIZE;
+import static com.kvstore.main.Database.VALUE_SIZE;
+
+/**
+ * Iterates over the fixed-size records of a data file in file order, reading many records per I/O call.
+ * Records are visited regardless of their status, including deleted ones, and chain pointers are ignored.
+ * Uses positional reads, so the file pointer of the underlying {@link FileManager} is left untouched.
+ */
+class RecordScanner {
+    private static final int RECORDS_PER_READ = 512;
+
+    /**
+     * Fills a buffer from a given offset, such as {@link FileManager#read(ByteBuffer, long)}.
+     */
+    interface Source {
+        void read(ByteBuffer buffer, long position) throws IOException;
+    }
+
+    private final Source source;
+    private final long end;
+    private final ByteBuffer buffer;
+    private final byte[] keyBytes;
+    private final byte[] valueBytes;
+    private long position;
+    private byte status;
+
+    /**
+     * Creates a scanner over the records between the given offsets.
+     *
+     * @param source The file or snapshot to read from.
+     * @param start The offset of the first record, normally the end of the bucket table.
+     * @param end The offset after the last record. A trailing partial record is skipped.
+     */
+    RecordScanner(Source source, long start, long end) {
+        this.source = source;
+        this.end = end;
+        this.position = start;
+        this.buffer = ByteBuffer.allocate(RECORD_SIZE * RECORDS_PER_READ);
+        this.buffer.limit(0);
+        this.keyBytes = new byte[KEY_SIZE];
+        this.valueBytes = new byte[VALUE_SIZE];
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return true if a record was read, false once the end has been reached.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    boolean next() throws IOException {
+        if (buffer.remaining() < RECORD_SIZE && !fill()) return false;
+        status = buffer.get();
+        buffer.getLong(); // Next pointer, not needed for a sequential scan
+        buffer.get(keyBytes);
+        buffer.get(valueBytes);
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        long records = Math.min(RECORDS_PER_READ, (end - position) / RECORD_SIZE);
+        if (records <= 0) return false;
+        buffer.clear();
+        buffer.limit((int) records * RECORD_SIZE);
+        source.read(buffer, position);
+        if (buffer.hasRemaining()) {
+            throw new IOException("Unexpected end of file at offset " + (position + buffer.position()));
+        }
+        position += buffer.limit();
+        buffer.flip();
+        return true;
+    }
+
+    boolean isActive() {
+        return status == 1;
+    }
+
+    String getKey() {
+        return new String(keyBytes, CHARSET).trim();
+    }
+
+    String getValue() {
+        return new String(valueBytes, CHARSET).trim();
+    }
+
+    /**
+     * Writes every remaining active record as a tab-separated key and value line, escaped with
+     * {@link BulkLoader#escapeTsv}.
+     *
+     * @param out The writer to receive the records.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    long exportTsv(Writer out) throws IOException {
+        long count = 0;
+        while (next()) {
+            if (!isActive()) continue;
+            out.write(BulkLoader.escapeTsv(getKey()));
+            out.write('\t');
+            out.write(BulkLoader.escapeTsv(getValue()));
+            out.write('\n');
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,265 @@
+package com.kvstore.main;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.kvstore.main.Database.DEFAULT_DATA_FILE_NAME;
+import static com.kvstore.main.Database.CHARSET;
+import static com.kvstore.main.Database.KEY_SIZE;
+import static com.kvstore.main.Database.RECORD_SIZE;
+import static com.kvstore.main.Database.VALUE_SIZE;
+
+/**
+ * A read-only, point-in-time view of the data file, created by {@link Database#snapshot()}.
+ * The snapshot reads the live file through its own handle. Before the database overwrites any byte
+ * that existed when the snapshot was taken, it hands the snapshot a copy of the surrounding page
+ * (copy-on-write), and the snapshot reads that copy instead of the file from then on. Records appended
+ * after the snapshot lie past its end and are never reachable from its bucket table. When the database
+ * resizes, the old file is replaced rather than modified, so the snapshot keeps reading it through its
+ * open handle and no further copies are needed. Replacing a file that is still open needs POSIX rename
+ * semantics; on platforms such as Windows, resizes fail while a snapshot is open.
+ * Preserved pages are spilled to a temporary file that is deleted on close, so the heap only holds an
+ * index entry per page; in the worst case the spill file grows to the size of the snapshot. Every
+ * in-place write, even an 8-byte pointer update, costs one page copy the first time it touches a page.
+ * Readers hold the snapshot's lock only to look up pages, never while reading, so writers only wait for
+ * the page copy itself, never for snapshot readers to finish. Closing the database closes its snapshots.
+ */
+public class Snapshot implements Closeable {
+    static final int PAGE_SIZE = 4096;
+
+    private final Database database;
+    private final FileManager fileManager;
+    private final BucketManager bucketManager;
+    private final long length;
+    private final Map<Long, Long> pages;  // Page number to its offset in the spill file
+    private final ByteBuffer pageBuffer;
+    private Path spillPath;
+    private FileManager spillFile;
+    private long spillLength;
+    private boolean detached;
+    private boolean closed;
+
+    /**
+     * Opens a snapshot of the data file as it is now. The caller must hold the database lock so no write
+     * is in progress.
+     *
+     * @param database The database to notify when the snapshot is closed.
+     * @param bucketCount The current number of buckets.
+     * @param length The current length of the data file.
+     * @throws IOException If the data file cannot be opened.
+     */
+    Snapshot(Database database, int bucketCount, long length) throws IOException {
+        this.database = database;
+        this.fileManager = new FileManager(DEFAULT_DATA_FILE_NAME, "r");
+        this.bucketManager = new BucketManager(bucketCount);
+        this.length = length;
+        this.pages = new HashMap<>();
+        this.pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+    }
+
+    /**
+     * Copies the pages overlapping the given range before the database overwrites it, unless they
+     * were already copied or lie past the end of the snapshot.
+     *
+     * @param position The offset of the upcoming write.
+     * @param size The number of bytes about to be written.
+     * @return The number of pages copied.
+     * @throws IOException If the original bytes cannot be read.
+     */
+    synchronized int preserve(long position, int size) throws IOException {
+        if (detached || position >= length) return 0;
+        long end = Math.min(position + size, length);
+        int copied = 0;
+        for (long page = position / PAGE_SIZE; page * PAGE_SIZE < end; page++) {
+            if (pages.containsKey(page)) continue;
+            if (spillFile == null) {
+                spillPath = Files.createTempFile("kvstore-snapshot-", ".tmp");
+                spillFile = new FileManager(spillPath.toString(), "rw");
+            }
+            pageBuffer.clear();
+            pageBuffer.limit(pageLength(page));
+            fileManager.read(pageBuffer, page * PAGE_SIZE);
+            pageBuffer.flip();
+            spillFile.write(pageBuffer, spillLength);
+            pages.put(page, spillLength);
+            spillLength += pageBuffer.limit();
+            copied++;
+        }
+        return copied;
+    }
+
+    private int pageLength(long page) {
+        return (int) Math.min(PAGE_SIZE, length - page * PAGE_SIZE);
+    }
+
+    /**
+     * Stops copy-on-write tracking because the database has moved on to a new file and will never
+     * write to the one this snapshot reads again.
+     */
+    synchronized void detach() {
+        detached = true;
+    }
+
+    /**
+     * Retrieves the value the specified key had when the snapshot was taken.
+     *
+     * @param key The key whose associated value is to be returned.
+     * @return The value associated with the specified key, or null if no value was found.
+     * @throws IOException If an I/O error occurs during file access.
+     */
+    public String get(String key) throws IOException {
+        ByteBuffer pointer = ByteBuffer.allocate(Long.BYTES);
+        read(pointer, bucketManager.getBucketOffset(key));
+        long entryPos = pointer.getLong(0); // Read the head of the chain for this bucket
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        while (entryPos != 0) {
+            record.clear();
+            read(record, entryPos);
+            byte status = record.get(0);
+            long nextEntryPos = record.getLong(1);
+            String currentKey = new String(record.array(), 1 + Long.BYTES, KEY_SIZE, CHARSET).trim();
+
+            if (status == 1 && currentKey.equals(key)) {
+                return new String(record.array(), 1 + Long.BYTES + KEY_SIZE, VALUE_SIZE, CHARSET).trim();
+            }
+
+            entryPos = nextEntryPos; // Move to the next entry in the chain
+        }
+
+        return null; // Key not found
+    }
+
+    /**
+     * Streams every record that was active when the snapshot was taken as a tab-separated line, in file order.
+     *
+     * @param out The writer to receive the records.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    public long export(Writer out) throws IOException {
+        return new RecordScanner(this::read, bucketManager.getHeaderSize(), length).exportTsv(out);
+    }
+
+    /**
+     * Dumps the snapshot to a TSV file that {@link BulkLoader#loadTsv} can read back.
+     *
+     * @param output The file to write.
+     * @return The number of records written.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    public long exportTsv(Path output) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            return export(writer);
+        }
+    }
+
+    /**
+     * Writes a byte-for-byte copy of the data file as of the snapshot, usable as a backup that a
+     * {@link Database} can open in place of {@code data.data}.
+     *
+     * @param target The file to write.
+     * @throws IOException If an I/O error occurs while reading or writing.
+     */
+    public void copyTo(Path target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (long position = 0; position < length; position += PAGE_SIZE) {
+                buffer.clear();
+                buffer.limit((int) Math.min(PAGE_SIZE, length - position));
+                read(buffer, position);
+                out.write(buffer.array(), 0, buffer.limit());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pages copied so far to keep this snapshot consistent.
+     */
+    public synchronized int getPagesCopied() {
+        return pages.size();
+    }
+
+    /**
+     * Fills the buffer with the snapshot's bytes starting at the given offset, taking each page from its
+     * spilled copy if the database has overwritten it, or from the file otherwise. The lock is only held to
+     * look pages up, never during a read, so writers never wait for readers. A page is always preserved
+     * before it is overwritten, so if it is still unpreserved after reading it from the file, the bytes read
+     * were the original ones; otherwise it is read again from its copy.
+     *
+     * @param buffer The buffer to fill.
+     * @param position The offset to read from.
+     * @throws IOException If the snapshot is closed, the range extends past the snapshot or the file cannot
+     *                     be read.
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        if (position + buffer.remaining() > length) {
+            throw new IOException("Read past end of snapshot at offset " + position);
+        }
+        while (buffer.hasRemaining()) {
+            long page = position / PAGE_SIZE;
+            int offsetInPage = (int) (position % PAGE_SIZE);
+            int count = Math.min(buffer.remaining(), PAGE_SIZE - offsetInPage);
+            ByteBuffer slice = buffer.slice();
+            slice.limit(count);
+            Long spillOffset = spillOffset(page);
+            if (spillOffset == null) {
+                fileManager.read(slice, position);
+                spillOffset = spillOffset(page);
+                if (spillOffset != null) {
+                    // The page was preserved while being read, so the bytes may already be overwritten
+                    slice.position(0);
+                }
+            }
+            if (spillOffset != null) {
+                spillFile.read(slice, spillOffset + offsetInPage);
+            }
+            if (slice.hasRemaining()) {
+                throw new IOException("Unexpected end of file at offset " + (position + slice.position()));
+            }
+            buffer.position(buffer.position() + count);
+            position += count;
+        }
+    }
+
+    /**
+     * Returns where the given page was spilled, or null if it has not been overwritten.
+     *
+     * @throws IOException If the snapshot is closed.
+     */
+    private synchronized Long spillOffset(long page) throws IOException {
+        if (closed) {
+            throw new IOException("Snapshot is closed");
+        }
+        return pages.get(page);
+    }
+
+    /**
+     * Releases the snapshot's file handle and deletes its spill file.
+     *
+     * @throws IOException If an I/O error occurs while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        database.release(this);
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            detached = true;
+            pages.clear();
+            fileManager.close();
+            if (spillFile != null) {
+                spillFile.close();
+                Files.deleteIfExists(spillPath);
+            }
+        }
+    }
+}
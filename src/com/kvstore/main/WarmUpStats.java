@@ -0,0 +1,109 @@
+package com.kvstore.main;
+
+/**
+ * Tracks the progress of preloading the cache from the hot-key snapshot persisted by the previous
+ * {@link Database#close()}. Warm-up runs on a background thread, so values may be read while it is
+ * still in progress.
+ */
+public class WarmUpStats {
+    private final int cacheCapacity;
+    private volatile int keysInSnapshot;
+    private volatile int keysRestored;
+    private volatile long elapsedMillis;
+    private volatile boolean timedOut;
+    private volatile boolean finished;
+    private volatile boolean snapshotUnreadable;
+    private volatile boolean snapshotUnwritable;
+
+    WarmUpStats(int cacheCapacity) {
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    public int getKeysInSnapshot() {
+        return keysInSnapshot;
+    }
+
+    void setKeysInSnapshot(int keysInSnapshot) {
+        this.keysInSnapshot = keysInSnapshot;
+    }
+
+    public int getKeysRestored() {
+        return keysRestored;
+    }
+
+    void setKeysRestored(int keysRestored) {
+        this.keysRestored = keysRestored;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    /**
+     * Returns whether the hot-key snapshot was truncated or corrupt and was treated as empty.
+     */
+    public boolean isSnapshotUnreadable() {
+        return snapshotUnreadable;
+    }
+
+    void setSnapshotUnreadable(boolean snapshotUnreadable) {
+        this.snapshotUnreadable = snapshotUnreadable;
+    }
+
+    /**
+     * Returns whether {@link Database#close()} failed to persist the hot-key snapshot for the next warm-up.
+     */
+    public boolean isSnapshotUnwritable() {
+        return snapshotUnwritable;
+    }
+
+    void setSnapshotUnwritable(boolean snapshotUnwritable) {
+        this.snapshotUnwritable = snapshotUnwritable;
+    }
+
+    /**
+     * Returns the fraction of the snapshot that has been loaded back into the cache.
+     *
+     * @return A value between 0 and 1, or 1 if the snapshot was empty.
+     */
+    public double getRestoredFraction() {
+        int snapshotSize = keysInSnapshot;
+        return snapshotSize == 0 ? 1.0 : (double) keysRestored / snapshotSize;
+    }
+
+    /**
+     * Returns the fraction of the cache capacity that was filled by warm-up.
+     *
+     * @return A value between 0 and 1.
+     */
+    public double getCacheFillFraction() {
+        return (double) keysRestored / cacheCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpStats{keysInSnapshot=" + keysInSnapshot + ", keysRestored=" + keysRestored
+                + ", elapsedMillis=" + elapsedMillis + ", timedOut=" + timedOut + ", finished=" + finished
+                + ", snapshotUnreadable=" + snapshotUnreadable + ", snapshotUnwritable=" + snapshotUnwritable + "}";
+    }
+}
@@ -0,0 +1,672 @@
+package com.kvstore.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.kvstore.main.Database.DEFAULT_DATA_FILE_NAME;
+import static com.kvstore.main.Database.DEFAULT_HOT_KEYS_FILE_NAME;
+import static com.kvstore.main.Database.KEY_NOT_FOUND;
+import static com.kvstore.main.Database.KEY_SIZE;
+import static com.kvstore.main.Database.VALUE_SIZE;
+
+/**
+ * Drives a configurable, YCSB-style workload against a {@link Database} to reproduce production-like load.
+ * A run bulk-loads the initial records, then starts a number of threads that issue a mix of reads, updates,
+ * inserts and deletes for a fixed duration, choosing keys from a uniform, Zipfian or latest distribution.
+ * It reports throughput, latency percentiles per operation, data file growth, resize count and cache hit
+ * rate, and writes the same results as JSON so runs can be compared.
+ * Runs against {@code data.data} in the working directory.
+ */
+public class WorkloadGenerator {
+    private static final String KEY_PREFIX = "user";
+    private static final String VALUE_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private static final double ZIPFIAN_CONSTANT = 0.99;
+
+    public enum Operation { READ, UPDATE, INSERT, DELETE }
+
+    /**
+     * The settings of one run, parsed from {@code --name=value} arguments.
+     */
+    public static class Config {
+        String workload = "read-heavy";
+        double[] mix = {0.95, 0.05, 0, 0};
+        String distribution = "zipfian";
+        long records = 100_000;
+        int threads = 4;
+        long durationSeconds = 30;
+        int keySizeMin = 16;
+        int keySizeMax = 16;
+        int valueSizeMin = VALUE_SIZE;
+        int valueSizeMax = VALUE_SIZE;
+        long seed = 42;
+        String output = "workload-result.json";
+        boolean overwrite;
+
+        /**
+         * Parses the command-line options, applying the workload preset before any explicit proportions.
+         *
+         * @param args The {@code --name=value} arguments.
+         * @return The validated settings.
+         * @throws IllegalArgumentException If an option is unknown, malformed or out of range.
+         */
+        public static Config parse(String[] args) {
+            Config config = new Config();
+            // Apply the preset first so explicit proportions override it
+            for (String arg : args) {
+                if (arg.startsWith("--workload=")) {
+                    config.setWorkload(arg.substring("--workload=".length()));
+                }
+            }
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                String name = equals < 0 ? arg : arg.substring(0, equals);
+                String value = equals < 0 ? "" : arg.substring(equals + 1);
+                switch (name) {
+                    case "--workload":
+                        break;
+                    case "--read":
+                        config.mix[Operation.READ.ordinal()] = Double.parseDouble(value);
+                        break;
+                    case "--update":
+                        config.mix[Operation.UPDATE.ordinal()] = Double.parseDouble(value);
+                        break;
+                    case "--insert":
+                        config.mix[Operation.INSERT.ordinal()] = Double.parseDouble(value);
+                        break;
+                    case "--delete":
+                        config.mix[Operation.DELETE.ordinal()] = Double.parseDouble(value);
+                        break;
+                    case "--distribution":
+                        config.distribution = value;
+                        break;
+                    case "--records":
+                        config.records = Long.parseLong(value);
+                        break;
+                    case "--threads":
+                        config.threads = Integer.parseInt(value);
+                        break;
+                    case "--duration":
+                        config.durationSeconds = Long.parseLong(value);
+                        break;
+                    case "--key-size":
+                        int[] keySize = parseRange(value);
+                        config.keySizeMin = keySize[0];
+                        config.keySizeMax = keySize[1];
+                        break;
+                    case "--value-size":
+                        int[] valueSize = parseRange(value);
+                        config.valueSizeMin = valueSize[0];
+                        config.valueSizeMax = valueSize[1];
+                        break;
+                    case "--seed":
+                        config.seed = Long.parseLong(value);
+                        break;
+                    case "--output":
+                        config.output = value;
+                        break;
+                    case "--overwrite":
+                        config.overwrite = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            config.validate();
+            return config;
+        }
+
+        public String getWorkload() {
+            return workload;
+        }
+
+        /**
+         * Returns the configured proportion of the given operation, before normalization.
+         */
+        public double getProportion(Operation operation) {
+            return mix[operation.ordinal()];
+        }
+
+        public String getDistribution() {
+            return distribution;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        private void setWorkload(String workload) {
+            this.workload = workload;
+            switch (workload) {
+                case "read-heavy":
+                    mix = new double[]{0.95, 0.05, 0, 0};
+                    break;
+                case "write-heavy":
+                    mix = new double[]{0.5, 0.25, 0.25, 0};
+                    break;
+                case "delete-churn":
+                    mix = new double[]{0.5, 0, 0.25, 0.25};
+                    break;
+                case "custom":
+                    mix = new double[]{0, 0, 0, 0};
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown workload: " + workload);
+            }
+        }
+
+        /**
+         * Parses either a single size or an inclusive {@code min-max} range.
+         */
+        private static int[] parseRange(String value) {
+            int dash = value.indexOf('-');
+            if (dash < 0) {
+                int size = Integer.parseInt(value);
+                return new int[]{size, size};
+            }
+            return new int[]{Integer.parseInt(value.substring(0, dash)), Integer.parseInt(value.substring(dash + 1))};
+        }
+
+        private void validate() {
+            double total = 0;
+            for (double proportion : mix) {
+                if (proportion < 0) throw new IllegalArgumentException("Operation proportions must not be negative");
+                total += proportion;
+            }
+            if (total <= 0) throw new IllegalArgumentException("At least one operation proportion must be positive");
+            if (!distribution.equals("uniform") && !distribution.equals("zipfian") && !distribution.equals("latest")) {
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+            }
+            if (records < 1) throw new IllegalArgumentException("records must be at least 1");
+            if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+            if (durationSeconds < 1) throw new IllegalArgumentException("duration must be at least 1 second");
+            if (keySizeMin < 1 || keySizeMin > keySizeMax || keySizeMax > KEY_SIZE) {
+                throw new IllegalArgumentException("key-size must be within 1-" + KEY_SIZE);
+            }
+            int minKeySize = KEY_PREFIX.length() + Long.toString(records - 1).length();
+            if (keySizeMin < minKeySize) {
+                throw new IllegalArgumentException("key-size must be at least " + minKeySize
+                        + " to hold the \"" + KEY_PREFIX + "\" prefix and " + records + " distinct indexes");
+            }
+            if (valueSizeMin < 1 || valueSizeMin > valueSizeMax || valueSizeMax > VALUE_SIZE) {
+                throw new IllegalArgumentException("value-size must be within 1-" + VALUE_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Picks the index of an existing key given the number of keys inserted so far.
+     */
+    interface KeyChooser {
+        long next(SplittableRandom random, long insertedCount);
+    }
+
+    /**
+     * Generates ranks following a Zipfian distribution, where rank 0 is the most popular, using the
+     * rejection-free method from Gray et al., "Quickly Generating Billion-Record Synthetic Databases".
+     * Like YCSB, the item count may grow between calls; the zeta sum is extended incrementally rather
+     * than recomputed, so following the inserted count costs O(1) per insert.
+     */
+    public static class ZipfianGenerator {
+        private final double theta;
+        private final double alpha;
+        private final double zeta2;
+        private volatile State state;
+
+        /**
+         * The distribution parameters for one item count, replaced as a whole when the count grows.
+         */
+        private static class State {
+            final long items;
+            final double zetan;
+            final double eta;
+
+            State(long items, double zetan, double theta, double zeta2) {
+                this.items = items;
+                this.zetan = zetan;
+                this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+            }
+        }
+
+        /**
+         * Creates a generator over the given number of items.
+         *
+         * @param items The initial number of items, at least 1.
+         * @param theta The skew, between 0 and 1 exclusive; YCSB uses 0.99.
+         */
+        public ZipfianGenerator(long items, double theta) {
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zeta2 = zeta(0, 2, theta);
+            this.state = new State(items, zeta(0, items, theta), theta, zeta2);
+        }
+
+        /**
+         * Returns the sum of 1 / i^theta for i in (from, to].
+         */
+        private static double zeta(long from, long to, double theta) {
+            double sum = 0;
+            for (long i = from + 1; i <= to; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        public long next(SplittableRandom random) {
+            return next(random, state.items);
+        }
+
+        /**
+         * Returns a rank in [0, items). The distribution is extended if items has grown since the last call.
+         */
+        public long next(SplittableRandom random, long items) {
+            State current = state;
+            if (items > current.items) {
+                current = grow(items);
+            }
+            // Another thread may have grown past this caller's count; resampling keeps the rank in range
+            // and leaves the distribution over [0, items) unchanged
+            long rank;
+            do {
+                rank = sample(random, current);
+            } while (rank >= items);
+            return rank;
+        }
+
+        private synchronized State grow(long items) {
+            State current = state;
+            if (items > current.items) {
+                current = new State(items, current.zetan + zeta(current.items, items, theta), theta, zeta2);
+                state = current;
+            }
+            return current;
+        }
+
+        private long sample(SplittableRandom random, State current) {
+            double u = random.nextDouble();
+            double uz = u * current.zetan;
+            if (uz < 1.0) return 0;
+            if (uz < 1.0 + Math.pow(0.5, theta)) return 1;
+            return Math.min(current.items - 1, (long) (current.items * Math.pow(current.eta * u - current.eta + 1, alpha)));
+        }
+    }
+
+    private final Config config;
+    private final AtomicLong insertedCount;
+    private final Queue<Long> deletedKeys;
+    private final KeyChooser keyChooser;
+    private final double[] cumulativeMix;
+    private Database database;
+
+    WorkloadGenerator(Config config) {
+        this.config = config;
+        this.insertedCount = new AtomicLong(config.records);
+        this.deletedKeys = new ConcurrentLinkedQueue<>();
+        this.keyChooser = createKeyChooser(config);
+        this.cumulativeMix = new double[config.mix.length];
+        double total = Arrays.stream(config.mix).sum();
+        double running = 0;
+        for (int i = 0; i < config.mix.length; i++) {
+            running += config.mix[i] / total;
+            cumulativeMix[i] = running;
+        }
+    }
+
+    private static KeyChooser createKeyChooser(Config config) {
+        switch (config.distribution) {
+            case "uniform":
+                return (random, inserted) -> random.nextLong(inserted);
+            case "latest": {
+                // Recently inserted keys are the most popular
+                ZipfianGenerator zipfian = new ZipfianGenerator(config.records, ZIPFIAN_CONSTANT);
+                return (random, inserted) -> inserted - 1 - zipfian.next(random, inserted);
+            }
+            default: {
+                // Scatter popular ranks over the loaded keys so hot keys do not share buckets. Ranks past the
+                // loaded keys map to themselves, so inserted keys join the tail and the hot set stays put.
+                ZipfianGenerator zipfian = new ZipfianGenerator(config.records, ZIPFIAN_CONSTANT);
+                return (random, inserted) -> {
+                    long rank = zipfian.next(random, inserted);
+                    return rank < config.records ? Math.floorMod(fnvHash(rank), config.records) : rank;
+                };
+            }
+        }
+    }
+
+    /**
+     * FNV-1a hash of a long, used to scramble Zipfian ranks and to pick per-key sizes.
+     */
+    private static long fnvHash(long value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= value & 0xff;
+            hash *= 0x100000001b3L;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the key for the given index. Its length is fixed per index, so the same index always maps
+     * to the same key. Keys of the loaded records honor the configured size; keys inserted during the run
+     * may need one more digit than the largest loaded index.
+     */
+    String key(long index) {
+        String digits = Long.toString(index);
+        int length = config.keySizeMin
+                + (int) Math.floorMod(fnvHash(index), (long) (config.keySizeMax - config.keySizeMin + 1));
+        StringBuilder key = new StringBuilder(KEY_PREFIX);
+        while (key.length() + digits.length() < length) {
+            key.append('0');
+        }
+        return key.append(digits).toString();
+    }
+
+    private String value(SplittableRandom random) {
+        int length = random.nextInt(config.valueSizeMin, config.valueSizeMax + 1);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = VALUE_ALPHABET.charAt(random.nextInt(VALUE_ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    private Operation nextOperation(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < cumulativeMix.length; i++) {
+            if (u < cumulativeMix[i]) return Operation.values()[i];
+        }
+        return Operation.values()[cumulativeMix.length - 1];
+    }
+
+    /**
+     * Collects the latency samples and not-found counts of one thread.
+     */
+    static class Recorder {
+        final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+        final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        final Map<Operation, Long> notFound = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean found) {
+            long[] buffer = samples.computeIfAbsent(operation, op -> new long[1024]);
+            int count = counts.getOrDefault(operation, 0);
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                samples.put(operation, buffer);
+            }
+            buffer[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!found) {
+                notFound.merge(operation, 1L, Long::sum);
+            }
+        }
+
+        long[] samples(Operation operation) {
+            long[] buffer = samples.get(operation);
+            return buffer == null ? new long[0] : Arrays.copyOf(buffer, counts.get(operation));
+        }
+    }
+
+    /**
+     * Issues operations until the deadline.
+     */
+    private Recorder runWorker(int threadIndex, long deadline) throws IOException {
+        SplittableRandom random = new SplittableRandom(config.seed + threadIndex + 1);
+        Recorder recorder = new Recorder();
+        while (System.nanoTime() < deadline) {
+            Operation operation = nextOperation(random);
+            long start = System.nanoTime();
+            boolean found = execute(operation, random);
+            recorder.record(operation, System.nanoTime() - start, found);
+        }
+        return recorder;
+    }
+
+    /**
+     * Executes one operation against the database. Keys are chosen from every index inserted so far, so
+     * reads and deletes may land on a deleted key and count as not found. Inserts reuse deleted indexes
+     * before allocating new ones, so delete churn keeps the key space, and the hit rate, stable.
+     *
+     * @return false if the operation targeted a key that did not exist.
+     * @throws IOException If the database fails for any reason other than a missing key.
+     */
+    private boolean execute(Operation operation, SplittableRandom random) throws IOException {
+        switch (operation) {
+            case READ:
+                return database.get(key(keyChooser.next(random, insertedCount.get()))) != null;
+            case UPDATE:
+                database.put(key(keyChooser.next(random, insertedCount.get())), value(random));
+                return true;
+            case INSERT:
+                Long reused = deletedKeys.poll();
+                database.put(key(reused != null ? reused : insertedCount.getAndIncrement()), value(random));
+                return true;
+            default:
+                long index = keyChooser.next(random, insertedCount.get());
+                try {
+                    database.delete(key(index));
+                } catch (IOException e) {
+                    // Database reports a missing key as an IOException; churn makes that expected, but
+                    // real I/O failures, such as a failed shrink, must stop the run
+                    if (e.getMessage() == null || !e.getMessage().startsWith(KEY_NOT_FOUND)) throw e;
+                    return false;
+                }
+                deletedKeys.add(index);
+                return true;
+        }
+    }
+
+    /**
+     * Loads the initial records, runs the workload and returns the results as JSON.
+     */
+    String run() throws IOException, InterruptedException {
+        File dataFile = new File(DEFAULT_DATA_FILE_NAME);
+        if (dataFile.exists() && !config.overwrite) {
+            throw new IOException(DEFAULT_DATA_FILE_NAME + " already exists, pass --overwrite to replace it");
+        }
+        Files.deleteIfExists(Paths.get(DEFAULT_HOT_KEYS_FILE_NAME));
+
+        long loadStart = System.nanoTime();
+        SplittableRandom loadRandom = new SplittableRandom(config.seed);
+        Iterator<Map.Entry<String, String>> initialRecords = new Iterator<>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < config.records;
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                return Map.entry(key(next++), value(loadRandom));
+            }
+        };
+        new BulkLoader().load(initialRecords, config.records);
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+
+        database = new Database();
+        try {
+            long fileBytesBefore = dataFile.length();
+            ExecutorService workers = Executors.newFixedThreadPool(config.threads);
+            List<Recorder> recorders = new ArrayList<>();
+            long start = System.nanoTime();
+            try {
+                long deadline = start + config.durationSeconds * 1_000_000_000L;
+                List<Future<Recorder>> futures = new ArrayList<>();
+                for (int i = 0; i < config.threads; i++) {
+                    int threadIndex = i;
+                    futures.add(workers.submit(() -> runWorker(threadIndex, deadline)));
+                }
+                for (Future<Recorder> future : futures) {
+                    recorders.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw new IOException("Workload thread failed", e.getCause());
+            } finally {
+                workers.shutdownNow();
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            long fileBytesAfter = dataFile.length();
+            return toJson(recorders, loadSeconds, elapsedSeconds, fileBytesBefore, fileBytesAfter,
+                    database.getCacheHits(), database.getCacheMisses(), database.getResizeCount());
+        } finally {
+            database.close();
+        }
+    }
+
+    private String toJson(List<Recorder> recorders, double loadSeconds, double elapsedSeconds,
+                          long fileBytesBefore, long fileBytesAfter, long cacheHits, long cacheMisses, int resizes) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"config\": {")
+                .append("\"workload\": \"").append(config.workload).append("\", ")
+                .append("\"read\": ").append(config.mix[0]).append(", ")
+                .append("\"update\": ").append(config.mix[1]).append(", ")
+                .append("\"insert\": ").append(config.mix[2]).append(", ")
+                .append("\"delete\": ").append(config.mix[3]).append(", ")
+                .append("\"distribution\": \"").append(config.distribution).append("\", ")
+                .append("\"records\": ").append(config.records).append(", ")
+                .append("\"threads\": ").append(config.threads).append(", ")
+                .append("\"durationSeconds\": ").append(config.durationSeconds).append(", ")
+                .append("\"keySize\": [").append(config.keySizeMin).append(", ").append(config.keySizeMax).append("], ")
+                .append("\"valueSize\": [").append(config.valueSizeMin).append(", ").append(config.valueSizeMax).append("], ")
+                .append("\"seed\": ").append(config.seed).append("},\n");
+
+        long[] all = new long[0];
+        StringBuilder latencies = new StringBuilder();
+        StringBuilder notFound = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            long[] samples = new long[0];
+            long missing = 0;
+            for (Recorder recorder : recorders) {
+                samples = concat(samples, recorder.samples(operation));
+                missing += recorder.notFound.getOrDefault(operation, 0L);
+            }
+            if (samples.length == 0) continue;
+            all = concat(all, samples);
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            latencies.append(",\n    \"").append(name).append("\": ").append(latencySummary(samples));
+            notFound.append(notFound.length() == 0 ? "" : ", ").append('"').append(name).append("\": ").append(missing);
+        }
+
+        long requests = cacheHits + cacheMisses;
+        json.append("  \"loadSeconds\": ").append(format(loadSeconds)).append(",\n")
+                .append("  \"elapsedSeconds\": ").append(format(elapsedSeconds)).append(",\n")
+                .append("  \"operations\": ").append(all.length).append(",\n")
+                .append("  \"throughputOpsPerSec\": ").append(format(all.length / elapsedSeconds)).append(",\n")
+                .append("  \"latencyMicros\": {\n    \"all\": ").append(latencySummary(all)).append(latencies).append("\n  },\n")
+                .append("  \"notFound\": {").append(notFound).append("},\n")
+                .append("  \"fileBytesBefore\": ").append(fileBytesBefore).append(",\n")
+                .append("  \"fileBytesAfter\": ").append(fileBytesAfter).append(",\n")
+                .append("  \"fileGrowthBytes\": ").append(fileBytesAfter - fileBytesBefore).append(",\n")
+                .append("  \"resizes\": ").append(resizes).append(",\n")
+                .append("  \"cacheHits\": ").append(cacheHits).append(",\n")
+                .append("  \"cacheMisses\": ").append(cacheMisses).append(",\n")
+                .append("  \"cacheHitRate\": ").append(format(requests == 0 ? 0 : (double) cacheHits / requests)).append("\n")
+                .append("}\n");
+        return json.toString();
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Summarizes latency samples in microseconds using nearest-rank percentiles.
+     */
+    private static String latencySummary(long[] samples) {
+        StringBuilder summary = new StringBuilder("{\"count\": ").append(samples.length);
+        if (samples.length > 0) {
+            long[] sorted = samples.clone();
+            Arrays.sort(sorted);
+            double sum = 0;
+            for (long sample : sorted) {
+                sum += sample;
+            }
+            summary.append(", \"mean\": ").append(format(sum / sorted.length / 1e3));
+            for (double percentile : PERCENTILES) {
+                String name = "p" + (percentile == Math.floor(percentile)
+                        ? String.valueOf((int) percentile) : String.valueOf(percentile).replace(".", ""));
+                summary.append(", \"").append(name).append("\": ").append(format(percentile(sorted, percentile) / 1e3));
+            }
+            summary.append(", \"max\": ").append(format(sorted[sorted.length - 1] / 1e3));
+        }
+        return summary.append('}').toString();
+    }
+
+    /**
+     * Returns the nearest-rank percentile: the smallest sample such that at least the given percentage
+     * of samples is less than or equal to it.
+     *
+     * @param sorted The samples in ascending order, at least one.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The sample at the percentile.
+     */
+    public static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, rank)];
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    public static void main(String[] args) {
+        Config config;
+        try {
+            config = Config.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            showUsage();
+            return;
+        }
+        try {
+            String results = new WorkloadGenerator(config).run();
+            try (Writer writer = Files.newBufferedWriter(Paths.get(config.output))) {
+                writer.write(results);
+            }
+            System.out.print(results);
+            System.out.println("Results written to " + config.output);
+        } catch (IOException e) {
+            System.out.println("Workload error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Workload interrupted.");
+        }
+    }
+
+    private static void showUsage() {
+        System.out.println("Usage: java WorkloadGenerator [--option=value ...]");
+        System.out.println("Options:");
+        System.out.println("  --workload=read-heavy|write-heavy|delete-churn|custom   - Preset operation mix (default read-heavy)");
+        System.out.println("  --read=P --update=P --insert=P --delete=P             - Override operation proportions");
+        System.out.println("  --distribution=zipfian|uniform|latest                  - Key popularity (default zipfian)");
+        System.out.println("  --records=N          - Records bulk-loaded before the run (default 100000)");
+        System.out.println("  --threads=N          - Worker threads (default 4)");
+        System.out.println("  --duration=S         - Run time in seconds (default 30)");
+        System.out.println("  --key-size=N|MIN-MAX - Key length in characters, at least 4 plus the digits of records - 1 (default 16)");
+        System.out.println("  --value-size=N|MIN-MAX - Value length in characters (default 100)");
+        System.out.println("  --seed=N             - Random seed (default 42)");
+        System.out.println("  --output=FILE        - JSON results file (default workload-result.json)");
+        System.out.println("  --overwrite          - Replace an existing data.data");
+    }
+}
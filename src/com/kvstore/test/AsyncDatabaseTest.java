@@ -0,0 +1,162 @@
+package com.kvstore.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kvstore.main.AsyncDatabase;
+import com.kvstore.main.Database;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the AsyncDatabase facade, covering future-based CRUD operations, request coalescing,
+ * the bound on in-flight requests and failing queued requests on close.
+ */
+public class AsyncDatabaseTest {
+    private AsyncDatabase store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new AsyncDatabase(new Database());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        new File("data.data").delete();
+        new File("data.hot").delete();
+    }
+
+    @Test
+    void testPutAndGet() throws Exception {
+        String jsonValue = "{\"name\": \"value1\"}";
+        store.put("key1", jsonValue).get();
+        assertEquals(jsonValue, store.get("key1").get(), "Retrieved value should match the stored JSON value.");
+    }
+
+    @Test
+    void testDeleteMissingKeyFails() {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> store.delete("missing").get());
+        assertInstanceOf(IOException.class, e.getCause(), "Deleting a missing key should fail with an IOException.");
+    }
+
+    @Test
+    void testMultiGet() throws Exception {
+        store.put("key1", "value1");
+        store.put("key2", "value2").get();
+        Map<String, String> values = store.multiGet(List.of("key1", "key2", "key3")).get();
+        assertAll(
+                () -> assertEquals("value1", values.get("key1")),
+                () -> assertEquals("value2", values.get("key2")),
+                () -> assertNull(values.get("key3"), "Missing keys should map to null.")
+        );
+    }
+
+    @Test
+    void testReadAfterWriteIsNotCoalesced() throws Exception {
+        store.put("key1", "value1");
+        CompletableFuture<String> before = store.get("key1");
+        store.put("key1", "value2");
+        CompletableFuture<String> after = store.get("key1");
+        assertEquals("value1", before.get(), "A get queued before the put should see the old value.");
+        assertEquals("value2", after.get(), "A get queued after the put should see the new value.");
+    }
+
+    @Test
+    void testRejectsWhenInFlightLimitReached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        store.close();
+        store = new AsyncDatabase(new GatedDatabase(release), 1);
+        CompletableFuture<Void> first = store.put("key1", "value1");
+        CompletableFuture<Void> second = store.put("key2", "value2");
+
+        ExecutionException e = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause(), "Excess requests should be rejected.");
+        release.countDown();
+        first.get();
+        assertEquals(1, store.availableSlots(), "Slots should be released once requests complete.");
+    }
+
+    @Test
+    void testConcurrentGetsAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GatedDatabase database = new GatedDatabase(release);
+        store.close();
+        store = new AsyncDatabase(database);
+        store.put("key1", "value1");
+        CompletableFuture<String> first = store.get("key1");
+        CompletableFuture<String> second = store.get("key1");
+        CompletableFuture<String> third = store.get("key1");
+        first.cancel(false);
+        release.countDown();
+
+        assertAll(
+                () -> assertEquals("value1", second.get(), "Coalesced gets should see the value read."),
+                () -> assertEquals("value1", third.get(), "Cancelling one caller should not affect the others."),
+                () -> assertTrue(first.isCancelled()),
+                () -> assertEquals(1, database.gets.get(), "Concurrent gets for one key should share a single read.")
+        );
+    }
+
+    @Test
+    void testInterruptedCloseFailsQueuedOperations() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        store.close();
+        store = new AsyncDatabase(new GatedDatabase(release), 2);
+        CompletableFuture<Void> running = store.put("key1", "value1");
+        CompletableFuture<Void> queued = store.put("key2", "value2");
+
+        Thread.currentThread().interrupt();
+        store.close();
+        assertTrue(Thread.interrupted(), "Closing should restore the interrupt status.");
+
+        ExecutionException e = assertThrows(ExecutionException.class, queued::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause(), "Queued operations should fail on close.");
+        assertThrows(ExecutionException.class, running::get, "The gated operation should be interrupted.");
+        assertEquals(2, store.availableSlots(), "Aborted operations should release their slots.");
+    }
+
+    /**
+     * A database whose operations wait for a latch, to hold requests on the I/O thread.
+     */
+    private static class GatedDatabase extends Database {
+        private final CountDownLatch release;
+        private final AtomicInteger gets = new AtomicInteger();
+
+        GatedDatabase(CountDownLatch release) throws IOException {
+            this.release = release;
+        }
+
+        @Override
+        public String get(String key) throws IOException {
+            gets.incrementAndGet();
+            await();
+            return super.get(key);
+        }
+
+        @Override
+        public void put(String key, String value) throws IOException {
+            await();
+            super.put(key, value);
+        }
+
+        private void await() throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while gated", e);
+            }
+        }
+    }
+}
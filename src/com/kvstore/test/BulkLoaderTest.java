@@ -0,0 +1,126 @@
+package com.kvstore.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kvstore.main.BulkLoader;
+import com.kvstore.main.Database;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the BulkLoader, checking that files it builds are readable and writable through Database
+ * and that dumps round-trip.
+ */
+public class BulkLoaderTest {
+    private static final int RUN_SIZE = 100;
+
+    @AfterEach
+    void tearDown() {
+        new File("data.data").delete();
+        new File("data.hot").delete();
+    }
+
+    @Test
+    void testLoadWithSpilledRuns() throws IOException {
+        int numEntries = 1000;
+        List<Map.Entry<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            records.add(Map.entry("key" + i, "{\"value\": \"value" + i + "\"}"));
+        }
+        records.add(Map.entry("key0", "{\"value\": \"updated\"}"));
+
+        long loaded = new BulkLoader("data.data", RUN_SIZE).load(records.iterator(), numEntries);
+        assertEquals(numEntries, loaded, "Duplicate keys should be written once.");
+
+        Database store = new Database();
+        try {
+            assertEquals("{\"value\": \"updated\"}", store.get("key0"), "The last value for a key should win.");
+            for (int i = 1; i < numEntries; i++) {
+                assertEquals("{\"value\": \"value" + i + "\"}", store.get("key" + i), "All loaded values should be retrievable.");
+            }
+            store.delete("key1");
+            store.put("key" + numEntries, "{\"value\": \"new\"}");
+            assertNull(store.get("key1"), "Deleted value should not exist.");
+            assertEquals("{\"value\": \"value2\"}", store.get("key2"), "Loaded values should survive later writes.");
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void testExport() throws IOException {
+        Database store = new Database();
+        store.put("key1", "value1");
+        store.put("key2", "value2");
+        store.delete("key1");
+        store.close();
+
+        StringWriter out = new StringWriter();
+        assertEquals(1, new BulkLoader().export(out), "Only active records should be exported.");
+        assertEquals("key2\tvalue2\n", out.toString());
+    }
+
+    @Test
+    void testMultiByteValuesKeepRecordsFixedSize() throws IOException {
+        Database store = new Database();
+        store.put("key1", "{\"name\": \"caf\u00e9\"}");
+        store.put("key2", "value2");
+        store.put("key3", "value3");
+        store.close();
+
+        StringWriter out = new StringWriter();
+        assertEquals(3, new BulkLoader().export(out), "Records after a multi-byte value should still be exported.");
+
+        Database reopened = new Database();
+        try {
+            reopened.delete("key3");
+            assertAll(
+                    () -> assertEquals(0, reopened.getResizeCount(), "Reopening should count every record, so no shrink is due."),
+                    () -> assertEquals("{\"name\": \"caf\u00e9\"}", reopened.get("key1"), "Multi-byte values should round-trip."),
+                    () -> assertEquals("value2", reopened.get("key2"))
+            );
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testTsvRoundTripWithSpecialCharacters() throws IOException {
+        String value = "line1\nline2\tcol\\end \\n";
+        Database store = new Database();
+        store.put("key1", value);
+        store.put("key2", "value2");
+        store.close();
+
+        Path dump = Files.createTempFile("kvstore-dump-", ".tsv");
+        try {
+            assertEquals(2, new BulkLoader().exportTsv(dump));
+            assertEquals(2, new BulkLoader().loadTsv(dump, 2), "Escaped values should load as one record each.");
+        } finally {
+            Files.delete(dump);
+        }
+        Database reloaded = new Database();
+        try {
+            assertEquals(value, reloaded.get("key1"), "Tabs, newlines and backslashes should survive dump and load.");
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void testRejectsOverLongKeys() {
+        String key = "k".repeat(101);
+        List<Map.Entry<String, String>> records = List.of(Map.entry(key, "value"));
+        IOException e = assertThrows(IOException.class, () -> new BulkLoader().load(records.iterator(), 1));
+        assertTrue(e.getMessage().contains("Key longer than"), "Over-long keys should be rejected, not truncated.");
+    }
+}
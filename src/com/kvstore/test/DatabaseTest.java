@@ -3,12 +3,19 @@ package com.kvstore.test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.kvstore.main.Database;
+import com.kvstore.main.Snapshot;
+import com.kvstore.main.WarmUpStats;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Unit and integration tests for the Database class, ensuring functionality for CRUD operations
@@ -27,6 +34,7 @@ public class DatabaseTest {
     void tearDown() throws IOException {
         store.close();
         new File("data.data").delete();
+        new File("data.hot").delete();
     }
 
     @Test
@@ -112,4 +120,144 @@ public class DatabaseTest {
             assertEquals("{\"value\": \"value" + i + "\"}", store.get("key" + i), "All JSON values should be retrievable.");
         }
     }
+
+    @Test
+    void testCacheWarmUp() throws Exception {
+        int numEntries = 50;
+        for (int i = 0; i < numEntries; i++) {
+            store.put("key" + i, "{\"value\": \"value" + i + "\"}");
+        }
+        store.close();
+        store = new Database(5000);
+        WarmUpStats stats = store.getWarmUpStats();
+        while (!stats.isFinished()) {
+            Thread.sleep(10);
+        }
+        assertAll(
+                () -> assertEquals(numEntries, stats.getKeysInSnapshot(), "All cached keys should be persisted on close."),
+                () -> assertEquals(numEntries, stats.getKeysRestored(), "All persisted keys should be restored."),
+                () -> assertEquals("{\"value\": \"value7\"}", store.get("key7"), "Restored values should be correct.")
+        );
+    }
+
+    @Test
+    void testCorruptHotKeysDoNotBlockOpening() throws Exception {
+        store.put("key1", "{\"name\": \"value1\"}");
+        store.close();
+        Files.write(Paths.get("data.hot"), new byte[]{0, 0, 0, 5, 0});
+        store = new Database(1000);
+        WarmUpStats stats = store.getWarmUpStats();
+        while (!stats.isFinished()) {
+            Thread.sleep(10);
+        }
+        assertAll(
+                () -> assertTrue(stats.isSnapshotUnreadable(), "A truncated snapshot should be flagged."),
+                () -> assertEquals(0, stats.getKeysRestored(), "A truncated snapshot should be treated as empty."),
+                () -> assertEquals("{\"name\": \"value1\"}", store.get("key1"), "The database should still open.")
+        );
+    }
+
+    @Test
+    void testRejectsOverLongKeys() {
+        String key = "caf\u00e9".repeat(21);
+        IOException e = assertThrows(IOException.class, () -> store.put(key, "value"));
+        assertTrue(e.getMessage().contains("Key longer than"), "Keys over 100 bytes should be rejected, not truncated.");
+    }
+
+    @Test
+    void testLongValuesAreCutAtWholeCharacters() throws IOException {
+        String prefix = "a".repeat(99);
+        store.put("key1", prefix + "\u00e9\u00e9");
+        store.close();
+        store = new Database();
+        assertEquals(prefix, store.get("key1"), "A multi-byte character that does not fit should be dropped whole.");
+    }
+
+    @Test
+    void testUnwritableHotKeysDoNotFailClose() throws IOException {
+        store.put("key1", "{\"name\": \"value1\"}");
+        // A directory in the way of the temporary hot-key file makes writing it fail
+        Path blocker = Files.createDirectory(Paths.get("data.hot.tmp"));
+        try {
+            store.close();
+            assertAll(
+                    () -> assertTrue(store.getWarmUpStats().isSnapshotUnwritable(), "The failed write should be flagged."),
+                    () -> assertThrows(IOException.class, () -> store.get("key2"), "The data file should still be closed.")
+            );
+        } finally {
+            Files.delete(blocker);
+        }
+        store = new Database();
+        assertEquals("{\"name\": \"value1\"}", store.get("key1"));
+    }
+
+    @Test
+    void testSnapshotIsolation() throws IOException {
+        store.put("key1", "{\"name\": \"value1\"}");
+        store.put("key2", "{\"name\": \"value2\"}");
+        try (Snapshot snapshot = store.snapshot()) {
+            store.put("key1", "{\"name\": \"updated\"}");
+            store.delete("key2");
+            int numEntries = (int) (16 * .75) + 1;
+            for (int i = 0; i < numEntries; i++) {
+                store.put("key" + (i + 10), "{\"value\": \"value" + i + "\"}");
+            }
+            assertAll(
+                    () -> assertEquals("{\"name\": \"value1\"}", snapshot.get("key1"), "Snapshot should not see updates."),
+                    () -> assertEquals("{\"name\": \"value2\"}", snapshot.get("key2"), "Snapshot should not see deletes."),
+                    () -> assertNull(snapshot.get("key10"), "Snapshot should not see inserts made after a resize."),
+                    () -> assertEquals("{\"name\": \"updated\"}", store.get("key1"), "Writers should see their own updates.")
+            );
+        }
+    }
+
+    @Test
+    void testSnapshotCopyToReopensAsDatabase() throws IOException {
+        store.put("key1", "{\"name\": \"value1\"}");
+        store.put("key2", "{\"name\": \"value2\"}");
+        Path backup = Files.createTempFile("kvstore-backup-", ".data");
+        try (Snapshot snapshot = store.snapshot()) {
+            store.put("key1", "{\"name\": \"updated\"}");
+            store.delete("key2");
+            assertTrue(snapshot.getPagesCopied() > 0, "Overwriting the file should preserve pages for the snapshot.");
+            snapshot.copyTo(backup);
+        }
+        store.close();
+        Files.move(backup, Paths.get("data.data"), StandardCopyOption.REPLACE_EXISTING);
+
+        store = new Database();
+        assertAll(
+                () -> assertEquals("{\"name\": \"value1\"}", store.get("key1"), "The backup should hold the old value."),
+                () -> assertEquals("{\"name\": \"value2\"}", store.get("key2"), "The backup should hold deleted keys.")
+        );
+    }
+
+    @Test
+    void testSnapshotExport() throws IOException {
+        store.put("key1", "value1");
+        store.put("key2", "value2");
+        try (Snapshot snapshot = store.snapshot()) {
+            store.delete("key1");
+            store.put("key2", "updated");
+            store.put("key3", "value3");
+
+            StringWriter out = new StringWriter();
+            assertEquals(2, snapshot.export(out), "Export should see only records active at snapshot time.");
+            assertEquals("key1\tvalue1\nkey2\tvalue2\n", out.toString());
+        }
+    }
+
+    @Test
+    void testClosingDatabaseClosesSnapshots() throws IOException {
+        store.put("key1", "value1");
+        Snapshot snapshot = store.snapshot();
+        store.put("key1", "updated");
+        store.close();
+
+        IOException e = assertThrows(IOException.class, () -> snapshot.get("key1"),
+                "Nothing preserves pages once the database is closed, so the snapshot must not be readable.");
+        assertEquals("Snapshot is closed", e.getMessage());
+        snapshot.close();
+        store = new Database();
+    }
 }
\ No newline at end of file
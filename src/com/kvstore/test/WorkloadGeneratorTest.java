@@ -0,0 +1,96 @@
+package com.kvstore.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kvstore.main.WorkloadGenerator;
+import com.kvstore.main.WorkloadGenerator.Config;
+import com.kvstore.main.WorkloadGenerator.Operation;
+import com.kvstore.main.WorkloadGenerator.ZipfianGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tests for the WorkloadGenerator's option parsing, key distribution and latency percentiles.
+ */
+public class WorkloadGeneratorTest {
+
+    @Test
+    void testPresetThenOverride() {
+        Config config = Config.parse(new String[]{"--delete=0.1", "--workload=write-heavy", "--distribution=uniform"});
+        assertAll(
+                () -> assertEquals("write-heavy", config.getWorkload()),
+                () -> assertEquals(0.5, config.getProportion(Operation.READ), "Preset proportions should apply."),
+                () -> assertEquals(0.1, config.getProportion(Operation.DELETE), "Explicit proportions should override the preset wherever they appear."),
+                () -> assertEquals("uniform", config.getDistribution())
+        );
+    }
+
+    @Test
+    void testRejectsBadInput() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--workload=unknown"})),
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--bogus=1"})),
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--records=abc"})),
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--workload=custom"}),
+                        "A custom mix with no proportions should be rejected."),
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--read=-1"})),
+                () -> assertThrows(IllegalArgumentException.class, () -> Config.parse(new String[]{"--key-size=8", "--records=100000"}),
+                        "Keys too short for the prefix and index digits should be rejected.")
+        );
+    }
+
+    @Test
+    void testZipfianRangeAndSkew() {
+        int items = 1000;
+        ZipfianGenerator zipfian = new ZipfianGenerator(items, 0.99);
+        SplittableRandom random = new SplittableRandom(42);
+        int samples = 100_000;
+        int[] counts = new int[items];
+        for (int i = 0; i < samples; i++) {
+            long rank = zipfian.next(random);
+            assertTrue(rank >= 0 && rank < items, "Ranks should lie within the items.");
+            counts[(int) rank]++;
+        }
+        int tail = 0;
+        for (int i = items / 2; i < items; i++) {
+            tail += counts[i];
+        }
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10], "Lower ranks should be more popular.");
+        assertTrue(counts[0] > samples / 10, "The top rank should take a large share of requests.");
+        assertTrue(tail < counts[0], "The colder half together should be requested less than the top rank.");
+    }
+
+    @Test
+    void testZipfianFollowsGrowingItemCount() {
+        ZipfianGenerator zipfian = new ZipfianGenerator(10, 0.99);
+        SplittableRandom random = new SplittableRandom(42);
+        boolean sawNewItem = false;
+        for (int i = 0; i < 100_000; i++) {
+            long rank = zipfian.next(random, 100);
+            assertTrue(rank >= 0 && rank < 100, "Ranks should lie within the current item count.");
+            sawNewItem |= rank >= 10;
+        }
+        assertTrue(sawNewItem, "Items added after construction should be chosen.");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(zipfian.next(random, 10) < 10, "A caller with a smaller count should stay within it.");
+        }
+    }
+
+    @Test
+    void testNearestRankPercentiles() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertAll(
+                () -> assertEquals(50, WorkloadGenerator.percentile(sorted, 50)),
+                () -> assertEquals(95, WorkloadGenerator.percentile(sorted, 95)),
+                () -> assertEquals(100, WorkloadGenerator.percentile(sorted, 99.9), "Fractional ranks should round up."),
+                () -> assertEquals(1, WorkloadGenerator.percentile(sorted, 0), "The lowest percentile should be the minimum."),
+                () -> assertEquals(7, WorkloadGenerator.percentile(new long[]{3, 7}, 51)),
+                () -> assertEquals(3, WorkloadGenerator.percentile(new long[]{3, 7}, 50)),
+                () -> assertEquals(5, WorkloadGenerator.percentile(new long[]{5}, 99.9))
+        );
+    }
+}